@@ -2,8 +2,10 @@ package com.Alvaro_Elorza_Santander_SBT;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AlvaroElorzaSantanderSbtApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,62 @@
+package com.Alvaro_Elorza_Santander_SBT.config;
+
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+* Keep-alive, acceptor and HTTP/2 settings of the embedded Tomcat that are not available as server.tomcat.* properties.
+* Spring Boot only adds HTTP/2 to SSL connectors, with server.http2.enabled the plain connector also accepts h2c,
+* by upgrade or by prior knowledge
+*/
+@Configuration
+@ConditionalOnClass(Tomcat.class)
+public class TomcatServerConfig {
+
+	@Value("${server.http2.enabled:false}")
+	private boolean http2Enabled;
+
+	@Value("${accounts.server.keep-alive-timeout}")
+	private int keepAliveTimeout;
+
+	@Value("${accounts.server.max-keep-alive-requests}")
+	private int maxKeepAliveRequests;
+
+	@Value("${accounts.server.acceptor-threads}")
+	private int acceptorThreads;
+
+	@Value("${accounts.server.http2-max-concurrent-streams}")
+	private long http2MaxConcurrentStreams;
+
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatKeepAliveCustomizer() {
+		return factory -> factory.addConnectorCustomizers(connector -> {
+			ProtocolHandler protocolHandler = connector.getProtocolHandler();
+			if (protocolHandler instanceof AbstractHttp11Protocol) {
+				AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) protocolHandler;
+				protocol.setKeepAliveTimeout(keepAliveTimeout);
+				protocol.setMaxKeepAliveRequests(maxKeepAliveRequests);
+				protocol.setAcceptorThreadCount(acceptorThreads);
+			}
+			if (http2Enabled && connector.findUpgradeProtocols().length == 0) {
+				connector.addUpgradeProtocol(new Http2Protocol());
+			}
+			for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+				if (upgradeProtocol instanceof Http2Protocol) {
+					Http2Protocol http2Protocol = (Http2Protocol) upgradeProtocol;
+					http2Protocol.setKeepAliveTimeout(keepAliveTimeout);
+					http2Protocol.setMaxConcurrentStreams(http2MaxConcurrentStreams);
+				}
+			}
+		});
+	}
+
+}
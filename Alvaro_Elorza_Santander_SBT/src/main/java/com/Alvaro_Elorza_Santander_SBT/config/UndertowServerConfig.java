@@ -0,0 +1,41 @@
+package com.Alvaro_Elorza_Santander_SBT.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
+
+/**
+* Keep-alive and HTTP/2 settings of the embedded Undertow. The acceptor and worker threads are the
+* server.undertow.io-threads and server.undertow.worker-threads properties, and Undertow has no limit of
+* requests per connection. Spring Boot only enables HTTP/2 on SSL listeners, with server.http2.enabled the plain
+* listener also accepts h2c
+*/
+@Configuration
+@ConditionalOnClass(Undertow.class)
+public class UndertowServerConfig {
+
+	@Value("${server.http2.enabled:false}")
+	private boolean http2Enabled;
+
+	@Value("${accounts.server.keep-alive-timeout}")
+	private int keepAliveTimeout;
+
+	@Value("${accounts.server.http2-max-concurrent-streams}")
+	private int http2MaxConcurrentStreams;
+
+	@Bean
+	public WebServerFactoryCustomizer<UndertowServletWebServerFactory> undertowKeepAliveCustomizer() {
+		return factory -> factory.addBuilderCustomizers(builder -> builder
+				.setServerOption(UndertowOptions.ENABLE_HTTP2, http2Enabled)
+				.setServerOption(UndertowOptions.ALWAYS_SET_KEEP_ALIVE, true)
+				.setServerOption(UndertowOptions.NO_REQUEST_TIMEOUT, keepAliveTimeout)
+				.setServerOption(UndertowOptions.HTTP2_SETTINGS_MAX_CONCURRENT_STREAMS, http2MaxConcurrentStreams));
+	}
+
+}
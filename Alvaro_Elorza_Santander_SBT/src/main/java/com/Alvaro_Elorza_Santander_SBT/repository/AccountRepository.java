@@ -1,6 +1,16 @@
 package com.Alvaro_Elorza_Santander_SBT.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.Alvaro_Elorza_Santander_SBT.model.Account;
@@ -8,4 +18,29 @@ import com.Alvaro_Elorza_Santander_SBT.model.Account;
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long>{
 
+	/**
+	 * Lowest account id stored
+	 * @return the lowest id, null if there are no accounts
+	 */
+	@Query("select min(a.id) from Account a")
+	Long findMinId();
+
+	/**
+	 * Highest account id stored
+	 * @return the highest id, null if there are no accounts
+	 */
+	@Query("select max(a.id) from Account a")
+	Long findMaxId();
+
+	/**
+	 * Streams the accounts of an id range ordered by id, the entities are loaded read only. 
+	 * The stream must be consumed inside a transaction and closed afterwards
+	 * @param fromId first id of the range, inclusive
+	 * @param toId last id of the range, inclusive
+	 * @return Stream of accounts
+	 */
+	@Query("select a from Account a where a.id between :fromId and :toId order by a.id")
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+	Stream<Account> streamByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
 }
@@ -0,0 +1,316 @@
+package com.Alvaro_Elorza_Santander_SBT.snapshot;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Alvaro_Elorza_Santander_SBT.model.Account;
+import com.Alvaro_Elorza_Santander_SBT.repository.AccountRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+* This job writes a reconciliation snapshot of the accounts. The Account table is streamed in fixed id ranges that are
+* processed in parallel on a dedicated fork-join pool, every range gets its number of accounts, balance total and
+* checksum. As the ranges are aligned to multiples of the partition size, two snapshots can be compared partition by
+* partition to find only the ranges that changed.
+* Every partition is read in its own transaction while the online updates go on, so each partition is consistent on
+* its own but the file as a whole is not a point in time image of the table: an update done during the run can be
+* counted in one partition and missed in another, and the totals of the file may not match any real state of the table
+*/
+@Component
+@Slf4j
+public class AccountSnapshotJob {
+
+	private static final String PARTITION_SIZE_HEADER = "#partitionSize=";
+
+	private static final String COLUMNS_HEADER = "#fromId,toId,accounts,balanceTotal,checksum";
+
+	private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${accounts.snapshot.directory}")
+	private String directory;
+
+	@Value("${accounts.snapshot.partition-size}")
+	private long partitionSize;
+
+	@Value("${accounts.snapshot.parallelism}")
+	private int parallelism;
+
+	@Value("${spring.datasource.hikari.maximum-pool-size:10}")
+	private int maximumPoolSize;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private final AtomicInteger partitionsTotal = new AtomicInteger();
+
+	private final AtomicInteger partitionsDone = new AtomicInteger();
+
+	private final AtomicLong runAccounts = new AtomicLong();
+
+	private volatile long runStart;
+
+	private volatile long runEnd;
+
+	private ForkJoinPool pool;
+
+	private TransactionTemplate transactionTemplate;
+
+	private Counter accountsCounter;
+
+	private Timer durationTimer;
+
+	/**
+	* The job gets its own pool, so it never takes the common pool nor the request threads. Every worker holds a
+	* connection of the datasource pool while it streams a partition, so the parallelism is limited to half of that
+	* pool to leave the rest to the requests
+	* @throws IllegalArgumentException in case the partition size or the parallelism are not valid
+	*/
+	@PostConstruct
+	public void init() {
+		if (partitionSize <= 0) {
+			throw new IllegalArgumentException("accounts.snapshot.partition-size must be greater than 0 >> " + partitionSize);
+		}
+		if (parallelism <= 0 || parallelism > maximumPoolSize / 2) {
+			throw new IllegalArgumentException("accounts.snapshot.parallelism must be between 1 and half of "
+					+ "spring.datasource.hikari.maximum-pool-size (" + maximumPoolSize + ") >> " + parallelism);
+		}
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("account-snapshot-" + threadNumber.incrementAndGet());
+			return thread;
+		}, null, false);
+
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+
+		accountsCounter = meterRegistry.counter("accounts.snapshot.accounts");
+		durationTimer = meterRegistry.timer("accounts.snapshot.duration");
+		Gauge.builder("accounts.snapshot.progress", this, AccountSnapshotJob::getProgress)
+				.description("Ratio of partitions processed by the running snapshot").register(meterRegistry);
+		Gauge.builder("accounts.snapshot.throughput", this, AccountSnapshotJob::getThroughput)
+				.description("Accounts per second processed by the running snapshot, or by the last one when none is running")
+				.register(meterRegistry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	* Scheduled execution of the snapshot, errors are only logged so the next execution still happens
+	*/
+	@Scheduled(cron = "${accounts.snapshot.cron}")
+	public void scheduledSnapshot() {
+		try {
+			takeSnapshot();
+		} catch (Exception e) {
+			log.error("Account snapshot failed", e);
+		}
+	}
+
+	/**
+	* This method streams all the accounts by partitions and writes the snapshot file
+	* @return Path of the snapshot file written
+	* @throws IllegalStateException in case another snapshot is running
+	* @throws Exception in case the accounts can not be read or the file can not be written
+	*/
+	public Path takeSnapshot() throws Exception {
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Account snapshot already running");
+		}
+		try {
+			runAccounts.set(0);
+			runEnd = 0;
+			runStart = System.nanoTime();
+
+			List<Long> partitionStarts = getPartitionStarts();
+			partitionsDone.set(0);
+			partitionsTotal.set(partitionStarts.size());
+
+			List<PartitionSnapshot> partitions = pool.submit(() -> partitionStarts.parallelStream()
+					.map(this::reconcilePartition)
+					.filter(partition -> partition.getAccounts() > 0)
+					.collect(Collectors.toList())).get();
+
+			Path file = write(partitions);
+
+			runEnd = System.nanoTime();
+			long accounts = partitions.stream().mapToLong(PartitionSnapshot::getAccounts).sum();
+			durationTimer.record(runEnd - runStart, TimeUnit.NANOSECONDS);
+
+			log.info("account snapshot >> " + file + " accounts >> " + accounts + " partitions >> " + partitions.size());
+			return file;
+		} finally {
+			if (runEnd == 0) {
+				runEnd = System.nanoTime();
+			}
+			running.set(false);
+		}
+	}
+
+	/**
+	* This method compares two snapshot files taken with the same partition size
+	* @param previous Snapshot file taken first
+	* @param current Snapshot file taken later
+	* @return First id of the partitions that are different or only exist in one of the snapshots
+	* @throws IllegalArgumentException in case the snapshots were taken with different partition sizes
+	* @throws IOException in case a file can not be read
+	*/
+	public SortedSet<Long> diff(Path previous, Path current) throws IOException {
+		Map<Long, PartitionSnapshot> previousPartitions = read(previous);
+		Map<Long, PartitionSnapshot> currentPartitions = read(current);
+
+		SortedSet<Long> changed = new TreeSet<Long>();
+		changed.addAll(previousPartitions.keySet());
+		changed.addAll(currentPartitions.keySet());
+		changed.removeIf(fromId -> Objects.equals(previousPartitions.get(fromId), currentPartitions.get(fromId)));
+		return changed;
+	}
+
+	/**
+	* @return Ratio between 0 and 1 of the partitions processed by the current or last snapshot
+	*/
+	public double getProgress() {
+		int total = partitionsTotal.get();
+		return total == 0 ? 0 : (double) partitionsDone.get() / total;
+	}
+
+	/**
+	* @return Accounts per second processed by the current snapshot, or by the last one when none is running
+	*/
+	public double getThroughput() {
+		long start = runStart;
+		if (start == 0) {
+			return 0;
+		}
+		long end = runEnd == 0 ? System.nanoTime() : runEnd;
+		return runAccounts.get() * 1e9 / Math.max(end - start, 1);
+	}
+
+	private List<Long> getPartitionStarts() {
+		List<Long> partitionStarts = new ArrayList<Long>();
+		Long minId = accountRepository.findMinId();
+		Long maxId = accountRepository.findMaxId();
+		if (minId != null) {
+			for (long fromId = Math.floorDiv(minId, partitionSize) * partitionSize; fromId <= maxId; fromId += partitionSize) {
+				partitionStarts.add(fromId);
+			}
+		}
+		return partitionStarts;
+	}
+
+	private PartitionSnapshot reconcilePartition(Long fromId) {
+		Long toId = fromId + partitionSize - 1;
+
+		PartitionSnapshot partition = transactionTemplate.execute(status -> {
+			CRC32 checksum = new CRC32();
+			long accounts = 0;
+			BigDecimal balanceTotal = BigDecimal.ZERO;
+
+			try (Stream<Account> stream = accountRepository.streamByIdRange(fromId, toId)) {
+				Iterator<Account> iterator = stream.iterator();
+				while (iterator.hasNext()) {
+					Account account = iterator.next();
+					BigDecimal balance = BigDecimal.valueOf(account.getBalance());
+					checksum.update((account.getId() + "|" + account.getName() + "|" + balance.toPlainString() + "\n")
+							.getBytes(StandardCharsets.UTF_8));
+					balanceTotal = balanceTotal.add(balance);
+					accounts++;
+				}
+			}
+
+			return new PartitionSnapshot(fromId, toId, accounts, balanceTotal.setScale(2, RoundingMode.HALF_UP),
+					Long.toHexString(checksum.getValue()));
+		});
+
+		partitionsDone.incrementAndGet();
+		accountsCounter.increment(partition.getAccounts());
+		runAccounts.addAndGet(partition.getAccounts());
+		return partition;
+	}
+
+	private Path write(List<PartitionSnapshot> partitions) throws IOException {
+		Path snapshotDirectory = Files.createDirectories(Paths.get(directory));
+		String fileName = "accounts-snapshot-" + LocalDateTime.now().format(FILE_DATE_FORMAT);
+		Path file = snapshotDirectory.resolve(fileName + ".csv");
+		/* Only one snapshot runs at a time, a sequence is added when the name is already taken */
+		for (int sequence = 1; Files.exists(file); sequence++) {
+			file = snapshotDirectory.resolve(fileName + "-" + sequence + ".csv");
+		}
+
+		List<String> lines = new ArrayList<String>();
+		lines.add(PARTITION_SIZE_HEADER + partitionSize);
+		lines.add(COLUMNS_HEADER);
+		partitions.forEach(partition -> lines.add(partition.toLine()));
+
+		/* The file is written aside and moved, so a partial snapshot is never seen */
+		Path tempFile = Files.createTempFile(snapshotDirectory, "accounts-snapshot-", ".tmp");
+		Files.write(tempFile, lines, StandardCharsets.UTF_8);
+		return Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private Map<Long, PartitionSnapshot> read(Path file) throws IOException {
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		if (lines.isEmpty() || !lines.get(0).equals(PARTITION_SIZE_HEADER + partitionSize)) {
+			throw new IllegalArgumentException("Snapshot not taken with partition size " + partitionSize + " >> " + file);
+		}
+
+		Map<Long, PartitionSnapshot> partitions = new LinkedHashMap<Long, PartitionSnapshot>();
+		lines.stream()
+				.filter(line -> !line.startsWith("#"))
+				.map(PartitionSnapshot::fromLine)
+				.forEach(partition -> partitions.put(partition.getFromId(), partition));
+		return partitions;
+	}
+}
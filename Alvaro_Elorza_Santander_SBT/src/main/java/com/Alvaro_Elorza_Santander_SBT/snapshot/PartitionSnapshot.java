@@ -0,0 +1,59 @@
+package com.Alvaro_Elorza_Santander_SBT.snapshot;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Reconciliation totals of an id range of accounts, one line of a snapshot file
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class PartitionSnapshot {
+	/**
+	 * First account id of the partition, inclusive
+	 */
+	private final Long fromId;
+	/**
+	 * Last account id of the partition, inclusive
+	 */
+	private final Long toId;
+	/**
+	 * Number of accounts found in the partition
+	 */
+	private final long accounts;
+	/**
+	 * Sum of the balances of the partition with scale 2
+	 */
+	private final BigDecimal balanceTotal;
+	/**
+	 * CRC32 in hex of the id, name and balance of every account of the partition ordered by id
+	 */
+	private final String checksum;
+
+	/**
+	 * This method writes the partition in the snapshot file format
+	 * @return fromId,toId,accounts,balanceTotal,checksum
+	 */
+	public String toLine() {
+		return fromId + "," + toId + "," + accounts + "," + balanceTotal.toPlainString() + "," + checksum;
+	}
+
+	/**
+	 * This method reads a partition written with {@link #toLine()}
+	 * @param line Snapshot file line
+	 * @return PartitionSnapshot
+	 * @throws IllegalArgumentException in case the line has not the expected format
+	 */
+	public static PartitionSnapshot fromLine(String line) {
+		String[] values = line.split(",");
+		if (values.length != 5) {
+			throw new IllegalArgumentException("Wrong snapshot line >> " + line);
+		}
+		return new PartitionSnapshot(Long.valueOf(values[0]), Long.valueOf(values[1]), Long.parseLong(values[2]),
+				new BigDecimal(values[3]), values[4]);
+	}
+}
@@ -0,0 +1,93 @@
+package com.Alvaro_Elorza_Santander_SBT.config;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.Alvaro_Elorza_Santander_SBT.repository.AccountRepository;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+* Tests for the h2c and keep-alive settings of the embedded Tomcat
+*/
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "/application-test.properties")
+@ActiveProfiles("test")
+public class TomcatServerConfigTest {
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	private ServletWebServerApplicationContext applicationContext;
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${server.url}")
+	private String serverUrl;
+
+	@Value("${accounts.server.keep-alive-timeout}")
+	private int keepAliveTimeout;
+
+	@Value("${accounts.server.max-keep-alive-requests}")
+	private int maxKeepAliveRequests;
+
+	/**
+	 * Try recovering an account over HTTP/2 without TLS nor upgrade
+	 * @result Expect an HttpStatus 200 over h2c
+	 * @throws IOException
+	 */
+	@Test
+	public void testH2cGetAccountByID() throws IOException {
+
+		OkHttpClient client = new OkHttpClient.Builder()
+				.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+				.build();
+		Request request = new Request.Builder()
+				.url(serverUrl + port + "/accounts/" + accountRepository.findAll().get(0).getId())
+				.build();
+
+		try (Response response = client.newCall(request).execute()) {
+			Assert.assertEquals(200, response.code());
+			Assert.assertEquals(Protocol.H2_PRIOR_KNOWLEDGE, response.protocol());
+		}
+
+	}
+
+	/**
+	 * Check the keep-alive settings of the connector
+	 * @result Expect the accounts.server.* keep-alive values in the HTTP/1.1 protocol of the connector
+	 */
+	@Test
+	public void testKeepAliveSettings() {
+
+		TomcatWebServer webServer = (TomcatWebServer) applicationContext.getWebServer();
+		AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) webServer.getTomcat().getConnector()
+				.getProtocolHandler();
+
+		Assert.assertEquals(keepAliveTimeout, protocol.getKeepAliveTimeout());
+		Assert.assertEquals(maxKeepAliveRequests, protocol.getMaxKeepAliveRequests());
+
+	}
+
+}
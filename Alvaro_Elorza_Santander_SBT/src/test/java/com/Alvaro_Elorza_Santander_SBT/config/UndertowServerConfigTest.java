@@ -0,0 +1,84 @@
+package com.Alvaro_Elorza_Santander_SBT.config;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.Alvaro_Elorza_Santander_SBT.repository.AccountRepository;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+* Tests for the h2c and keep-alive settings of the embedded Undertow, only built with -Dwebserver=undertow
+*/
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "/application-test.properties")
+@ActiveProfiles("test")
+public class UndertowServerConfigTest {
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${server.url}")
+	private String serverUrl;
+
+	/**
+	 * Try recovering an account over HTTP/2 without TLS nor upgrade
+	 * @result Expect an HttpStatus 200 over h2c
+	 * @throws IOException
+	 */
+	@Test
+	public void testH2cGetAccountByID() throws IOException {
+
+		try (Response response = getAccount(Protocol.H2_PRIOR_KNOWLEDGE)) {
+			Assert.assertEquals(200, response.code());
+			Assert.assertEquals(Protocol.H2_PRIOR_KNOWLEDGE, response.protocol());
+		}
+
+	}
+
+	/**
+	 * Try recovering an account over HTTP/1.1
+	 * @result Expect an HttpStatus 200 with the connection kept alive
+	 * @throws IOException
+	 */
+	@Test
+	public void testKeepAliveGetAccountByID() throws IOException {
+
+		try (Response response = getAccount(Protocol.HTTP_1_1)) {
+			Assert.assertEquals(200, response.code());
+			Assert.assertEquals(Protocol.HTTP_1_1, response.protocol());
+			Assert.assertEquals("keep-alive", response.header("Connection"));
+		}
+
+	}
+
+	private Response getAccount(Protocol protocol) throws IOException {
+		OkHttpClient client = new OkHttpClient.Builder()
+				.protocols(Collections.singletonList(protocol))
+				.build();
+		Request request = new Request.Builder()
+				.url(serverUrl + port + "/accounts/" + accountRepository.findAll().get(0).getId())
+				.build();
+		return client.newCall(request).execute();
+	}
+
+}
@@ -0,0 +1,181 @@
+package com.Alvaro_Elorza_Santander_SBT.loadtest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.Alvaro_Elorza_Santander_SBT.repository.AccountRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+* Latency of getAccountById for every client connection configuration against the embedded server of the build.
+* It is excluded from the default build, run it with mvn test -Ploadtest [-Dwebserver=undertow]
+* and optionally -Dloadtest.requests, -Dloadtest.concurrency and -Dloadtest.warmup
+*/
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "/application-test.properties", properties = {
+		"spring.jpa.show-sql=false",
+		"logging.level.org.springframework.web=WARN",
+		"logging.level.com.Alvaro_Elorza_Santander_SBT.loadtest=INFO" })
+@ActiveProfiles("test")
+public class AccountLoadTest {
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	private ServletWebServerApplicationContext applicationContext;
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${server.url}")
+	private String serverUrl;
+
+	@Value("${loadtest.requests:5000}")
+	private int requests;
+
+	@Value("${loadtest.concurrency:16}")
+	private int concurrency;
+
+	@Value("${loadtest.warmup:500}")
+	private int warmup;
+
+	private String accountUrl;
+
+	@Before
+	public void setUp() {
+		accountUrl = serverUrl + port + "/accounts/" + accountRepository.findAll().get(0).getId();
+	}
+
+	/**
+	 * Every request opens its own HTTP/1.1 connection, as the gateway does today
+	 * @result Expect an HttpStatus 200 for every request, the p99 latency is logged
+	 * @throws Exception
+	 */
+	@Test
+	public void testHttp11NewConnectionLatency() throws Exception {
+
+		OkHttpClient client = new OkHttpClient.Builder()
+				.protocols(Collections.singletonList(Protocol.HTTP_1_1))
+				.connectionPool(new ConnectionPool(0, 1, TimeUnit.MILLISECONDS))
+				.build();
+
+		measure("http/1.1 new connection", client, Protocol.HTTP_1_1, true);
+
+	}
+
+	/**
+	 * The HTTP/1.1 connections are kept alive and reused between requests
+	 * @result Expect an HttpStatus 200 for every request, the p99 latency is logged
+	 * @throws Exception
+	 */
+	@Test
+	public void testHttp11KeepAliveLatency() throws Exception {
+
+		OkHttpClient client = new OkHttpClient.Builder()
+				.protocols(Collections.singletonList(Protocol.HTTP_1_1))
+				.connectionPool(new ConnectionPool(concurrency, 5, TimeUnit.MINUTES))
+				.build();
+
+		measure("http/1.1 keep-alive", client, Protocol.HTTP_1_1, false);
+
+	}
+
+	/**
+	 * All the requests are multiplexed on a cleartext HTTP/2 connection
+	 * @result Expect an HttpStatus 200 over HTTP/2 for every request, the p99 latency is logged
+	 * @throws Exception
+	 */
+	@Test
+	public void testH2cLatency() throws Exception {
+
+		OkHttpClient client = new OkHttpClient.Builder()
+				.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+				.build();
+
+		measure("h2c", client, Protocol.H2_PRIOR_KNOWLEDGE, false);
+
+	}
+
+	private void measure(String configuration, OkHttpClient client, Protocol protocol, boolean closeConnection)
+			throws Exception {
+		Request.Builder requestBuilder = new Request.Builder().url(accountUrl);
+		if (closeConnection) {
+			requestBuilder.header("Connection", "close");
+		}
+		Request request = requestBuilder.build();
+
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		try {
+			run(executor, client, request, protocol, warmup);
+			long[] latencies = run(executor, client, request, protocol, requests);
+			Arrays.sort(latencies);
+
+			log.info("loadtest >> " + applicationContext.getWebServer().getClass().getSimpleName() + " " + configuration
+					+ " requests >> " + requests + " concurrency >> " + concurrency
+					+ " p50 >> " + toMillis(percentile(latencies, 0.50)) + " ms"
+					+ " p99 >> " + toMillis(percentile(latencies, 0.99)) + " ms"
+					+ " max >> " + toMillis(latencies[latencies.length - 1]) + " ms");
+		} finally {
+			executor.shutdownNow();
+			client.connectionPool().evictAll();
+		}
+	}
+
+	private long[] run(ExecutorService executor, OkHttpClient client, Request request, Protocol protocol, int count)
+			throws Exception {
+		List<Future<Long>> futures = executor.invokeAll(Collections.nCopies(count, () -> {
+			long start = System.nanoTime();
+			try (Response response = client.newCall(request).execute()) {
+				response.body().bytes();
+				if (response.code() != 200 || response.protocol() != protocol) {
+					throw new IOException("Unexpected response >> " + response.code() + " " + response.protocol());
+				}
+			}
+			return System.nanoTime() - start;
+		}));
+
+		long[] latencies = new long[count];
+		for (int i = 0; i < count; i++) {
+			latencies[i] = futures.get(i).get();
+		}
+		return latencies;
+	}
+
+	private long percentile(long[] sortedLatencies, double percentile) {
+		int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+		return sortedLatencies[Math.max(index, 0)];
+	}
+
+	private String toMillis(long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.Alvaro_Elorza_Santander_SBT.snapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.Alvaro_Elorza_Santander_SBT.model.Account;
+import com.Alvaro_Elorza_Santander_SBT.repository.AccountRepository;
+
+/**
+* Tests for the account reconciliation snapshots. The accounts 10001, 10002, 10003 and 10006 with partitions of 2 ids
+* give the partitions 10000, 10002 and 10006, the partition 10004 is empty
+*/
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "/application-test.properties", properties = {
+		"spring.datasource.url=jdbc:h2:mem:snapshotdb",
+		"spring.datasource.data=classpath:/db/data-snapshot-test.sql",
+		"accounts.snapshot.partition-size=2" })
+@ActiveProfiles("test")
+public class AccountSnapshotJobTest {
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	AccountSnapshotJob accountSnapshotJob;
+
+	/**
+	 * Take a snapshot of the accounts
+	 * @result Expect a file with the non empty partitions ordered by id and the same number of accounts and balance
+	 * total as the Account table, and the progress and throughput of the run
+	 * @throws Exception
+	 */
+	@Test
+	public void testTakeSnapshot() throws Exception {
+
+		List<Account> accountList = accountRepository.findAll();
+		BigDecimal expectedTotal = accountList.stream()
+				.map(account -> BigDecimal.valueOf(account.getBalance()))
+				.reduce(BigDecimal.ZERO, BigDecimal::add)
+				.setScale(2, RoundingMode.HALF_UP);
+
+		Path file = accountSnapshotJob.takeSnapshot();
+
+		Assert.assertTrue(Files.exists(file));
+		List<PartitionSnapshot> partitions = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+				.filter(line -> !line.startsWith("#"))
+				.map(PartitionSnapshot::fromLine)
+				.collect(Collectors.toList());
+		Assert.assertEquals(Arrays.asList(10000L, 10002L, 10006L), partitions.stream()
+				.map(PartitionSnapshot::getFromId)
+				.collect(Collectors.toList()));
+		Assert.assertEquals(accountList.size(), partitions.stream().mapToLong(PartitionSnapshot::getAccounts).sum());
+		Assert.assertEquals(expectedTotal, partitions.stream()
+				.map(PartitionSnapshot::getBalanceTotal)
+				.reduce(BigDecimal.ZERO, BigDecimal::add));
+		Assert.assertEquals(1D, accountSnapshotJob.getProgress(), 0D);
+		Assert.assertTrue(accountSnapshotJob.getThroughput() > 0);
+
+	}
+
+	/**
+	 * Compare two snapshots with an account updated between them
+	 * @result Expect only the partition 10002 of the updated account 10003 as changed
+	 * @throws Exception
+	 */
+	@Test
+	public void testDiffSnapshots() throws Exception {
+
+		Path previous = accountSnapshotJob.takeSnapshot();
+		Assert.assertTrue(accountSnapshotJob.diff(previous, previous).isEmpty());
+
+		Account updateAccount = accountRepository.findById(10003L).get();
+		updateAccount.setBalance(updateAccount.getBalance() + 10.5D);
+		accountRepository.save(updateAccount);
+
+		Path current = accountSnapshotJob.takeSnapshot();
+
+		SortedSet<Long> changed = accountSnapshotJob.diff(previous, current);
+		Assert.assertEquals(Arrays.asList(10002L), new ArrayList<Long>(changed));
+
+	}
+
+}
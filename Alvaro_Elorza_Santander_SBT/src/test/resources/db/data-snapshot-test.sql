@@ -0,0 +1,5 @@
+INSERT INTO ACCOUNT (ID, NAME, BALANCE) VALUES
+(10001,'Account 1',4564.54),
+(10002,'Account 2',65456.54),
+(10003,'Account 3',1254.5),
+(10006,'Account 6',10.2);
\ No newline at end of file